@@ -0,0 +1,218 @@
+package com.pixti.bitt;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prueba instrumentada de ida y vuelta: graba cuadros con {@link FrameRecorder} y los
+ * exporta con {@link FrameRingExporter}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FrameRecorderExportTest {
+    // Cuadros de más para que el archivo circular dé la vuelta
+    private static final int EXTRA_FRAMES = 10;
+    private static final long BASE_TIMESTAMP = 1000;
+    // Más que los búferes intermedios del grabador
+    private static final int ACTIVE_FRAMES = 8;
+
+    private File ringFile;
+    private File outDir;
+    private Bitmap image;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ringFile = new File(context.getCacheDir(), "test_frames.ring");
+        outDir = new File(context.getCacheDir(), "test_frames_export");
+        ringFile.delete();
+        deleteDir(outDir);
+        image = Bitmap.createBitmap(224, 224, Bitmap.Config.ARGB_8888);
+    }
+
+    @After
+    public void tearDown() {
+        image.recycle();
+        ringFile.delete();
+        deleteDir(outDir);
+    }
+
+    @Test
+    public void recordPastCapacity_exportsLastSlotsOldestFirst() throws Exception {
+        int total = FrameRecorder.SLOT_COUNT + EXTRA_FRAMES;
+        recordFrames(0, total);
+
+        int exported = FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+        assertEquals(FrameRecorder.SLOT_COUNT, exported);
+
+        List<String[]> rows = readCsv();
+        assertEquals(FrameRecorder.SLOT_COUNT, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            // Los primeros EXTRA_FRAMES cuadros se sobrescribieron
+            assertFrameRow(rows.get(i), EXTRA_FRAMES + i);
+        }
+
+        // La imagen conserva el color del cuadro grabado
+        String[] first = rows.get(0);
+        Bitmap decoded = BitmapFactory.decodeFile(new File(outDir, first[1]).getAbsolutePath());
+        assertNotNull(decoded);
+        assertEquals(FrameRecorder.FRAME_SIZE, decoded.getWidth());
+        assertEquals(EXTRA_FRAMES, Color.red(decoded.getPixel(10, 10)));
+        decoded.recycle();
+    }
+
+    @Test
+    public void newSession_continuesAfterPreviousFrames() throws Exception {
+        recordFrames(0, FrameRecorder.SLOT_COUNT);
+        recordFrames(FrameRecorder.SLOT_COUNT, EXTRA_FRAMES);
+
+        FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+        List<String[]> rows = readCsv();
+        assertEquals(FrameRecorder.SLOT_COUNT, rows.size());
+        assertFrameRow(rows.get(0), EXTRA_FRAMES);
+        assertFrameRow(rows.get(rows.size() - 1), FrameRecorder.SLOT_COUNT + EXTRA_FRAMES - 1);
+    }
+
+    @Test
+    public void secondExport_replacesPreviousFiles() throws Exception {
+        recordFrames(0, FrameRecorder.SLOT_COUNT);
+        FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+        recordFrames(FrameRecorder.SLOT_COUNT, EXTRA_FRAMES);
+        FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+
+        // Solo quedan las imágenes del segundo CSV
+        String[] images = outDir.list((dir, name) -> name.endsWith(".png"));
+        assertEquals(FrameRecorder.SLOT_COUNT, images.length);
+        List<String[]> rows = readCsv();
+        assertFrameRow(rows.get(0), EXTRA_FRAMES);
+    }
+
+    @Test
+    public void activeRecorder_blocksExportAndDelete() throws Exception {
+        recordFrames(0, 3);
+        FrameRecorder recorder = new FrameRecorder(ringFile);
+        try {
+            // Más cuadros que búferes intermedios: el escritor ya tomó el archivo
+            recordInto(recorder, 3, ACTIVE_FRAMES);
+            try {
+                FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+                fail("La exportación debe fallar mientras se graba");
+            } catch (IOException expected) {
+                // Hay una grabación activa
+            }
+            assertFalse(FrameRecorder.deleteRing(ringFile));
+            assertTrue(ringFile.exists());
+        } finally {
+            recorder.close();
+            recorder.join();
+        }
+        assertEquals(3 + ACTIVE_FRAMES, FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES));
+    }
+
+    @Test
+    public void deleteRing_removesFileAfterRecording() throws Exception {
+        recordFrames(0, 3);
+        assertTrue(FrameRecorder.deleteRing(ringFile));
+        assertFalse(ringFile.exists());
+
+        // La siguiente sesión empieza de cero
+        recordFrames(100, 2);
+        assertEquals(2, FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES));
+        assertEquals("0", readCsv().get(0)[0]);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFile_isRejected() throws Exception {
+        recordFrames(0, 3);
+        try (RandomAccessFile file = new RandomAccessFile(ringFile, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+    }
+
+    @Test(expected = IOException.class)
+    public void zeroSlotCount_isRejected() throws Exception {
+        recordFrames(0, 3);
+        try (RandomAccessFile file = new RandomAccessFile(ringFile, "rw")) {
+            file.seek(8);
+            file.writeInt(0);
+        }
+        FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+    }
+
+    // Graba `count` cuadros numerados desde `start` en una sesión nueva y espera a que se escriban
+    private void recordFrames(int start, int count) throws InterruptedException {
+        FrameRecorder recorder = new FrameRecorder(ringFile);
+        recordInto(recorder, start, count);
+        recorder.close();
+        recorder.join();
+    }
+
+    // Graba `count` cuadros numerados desde `start` en un grabador abierto
+    private void recordInto(FrameRecorder recorder, int start, int count) throws InterruptedException {
+        float[] confidences = new float[MainActivity.CLASSES.length];
+        for (int n = start; n < start + count; n++) {
+            image.eraseColor(Color.rgb(n % 256, 0, 0));
+            Arrays.fill(confidences, 0f);
+            confidences[n % confidences.length] = 0.9f;
+
+            // El grabador descarta si el escritor va atrasado; la prueba reintenta
+            int attempts = 0;
+            while (!recorder.record(image, confidences, CandidateRecognizer.STATE_IDLE, -1, BASE_TIMESTAMP + n)) {
+                assertTrue("El escritor no avanza", ++attempts < 5000);
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private void assertFrameRow(String[] row, int n) {
+        assertEquals(String.valueOf(n), row[0]);
+        assertEquals(String.valueOf(BASE_TIMESTAMP + n), row[2]);
+        assertEquals(MainActivity.CLASSES[n % MainActivity.CLASSES.length], row[5]);
+        assertTrue(new File(outDir, row[1]).exists());
+    }
+
+    // Lee las filas del CSV sin el encabezado
+    private List<String[]> readCsv() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(new File(outDir, "scores.csv")))) {
+            String header = reader.readLine();
+            assertTrue(header.startsWith("frame,image,timestamp,state,candidate,label"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rows.add(line.split(","));
+            }
+        }
+        return rows;
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+}
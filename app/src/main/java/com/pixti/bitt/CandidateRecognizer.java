@@ -0,0 +1,210 @@
+/**
+ * Nombre de la Clase: CandidateRecognizer
+ *
+ * Fecha: Octubre 2026
+ *
+ * Descripción:
+ * Reconocedor de dos fases para los billetes. En la primera fase espera a que aparezca
+ * un candidato (una clase con confianza suficiente) y pide bloquear el enfoque y la
+ * exposición de la cámara. En la segunda fase, una vez que la óptica está estable,
+ * acumula una ráfaga corta de cuadros y confirma la denominación con el promedio de
+ * la ráfaga. Cuando el billete sale del cuadro, o se cambia por otro, pide desbloquear
+ * la cámara para volver a empezar.
+ *
+ * Notas adicionales:
+ * - Si una ráfaga no confirma, la cámara sigue bloqueada y empieza otra ráfaga; solo se
+ *   libera cuando el billete sale, para no repetir el ciclo de enfoque.
+ * - La clase no depende de Android para poder probarse de forma aislada.
+ * - Todos los métodos deben llamarse desde el mismo hilo (el hilo principal).
+ */
+
+package com.pixti.bitt;
+
+public class CandidateRecognizer {
+
+    /**
+     * Acciones que el reconocedor solicita a la actividad.
+     */
+    public interface Listener {
+        // Bloquea el enfoque y la exposición sobre el candidato
+        void onLockRequested();
+        // Libera el enfoque y la exposición
+        void onUnlockRequested();
+        // La ráfaga confirmó la clase indicada
+        void onConfirmed(int classIndex, float confidence);
+    }
+
+    // Estados del reconocedor
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_LOCKING = 1;
+    public static final int STATE_CONFIRMING = 2;
+    public static final int STATE_CONFIRMED = 3;
+
+    // Confianza mínima para considerar un cuadro como candidato
+    private final float candidateThreshold;
+    // Confianza media mínima de la ráfaga para confirmar
+    private final float confirmThreshold;
+    // Número de cuadros que forman la ráfaga de confirmación
+    private final int burstSize;
+    // Tiempo máximo de espera a que la cámara reporte el bloqueo
+    private final long lockTimeout;
+    // Cuadros consecutivos sin candidato para considerar que el billete salió
+    private final int leaveFrames;
+
+    private final Listener listener;
+
+    private int state = STATE_IDLE;
+    private int candidateClass = -1;
+    private long lockRequestTime = 0;
+    private boolean opticsLocked = false;
+    private int missedFrames = 0;
+
+    // Acumulador de la ráfaga; se reutiliza para no reservar memoria por cuadro
+    private float[] burstSum;
+    private int burstCount = 0;
+
+    public CandidateRecognizer(float candidateThreshold, float confirmThreshold, int burstSize,
+                               long lockTimeout, int leaveFrames, Listener listener) {
+        this.candidateThreshold = candidateThreshold;
+        this.confirmThreshold = confirmThreshold;
+        this.burstSize = burstSize;
+        this.lockTimeout = lockTimeout;
+        this.leaveFrames = leaveFrames;
+        this.listener = listener;
+    }
+
+    /**
+     * Procesa el vector de confianzas de un cuadro.
+     * @param confidences Salida del modelo para el cuadro.
+     * @param now Marca de tiempo del cuadro en milisegundos.
+     */
+    public void onFrame(float[] confidences, long now) {
+        int maxPos = argMax(confidences);
+        float maxConfidence = confidences[maxPos];
+        boolean isCandidate = maxConfidence >= candidateThreshold;
+        // Un cuadro de otra clase cuenta como perdido para detectar el cambio de billete
+        boolean isSameCandidate = isCandidate && maxPos == candidateClass;
+
+        switch (state) {
+            case STATE_IDLE:
+                if (isCandidate) {
+                    candidateClass = maxPos;
+                    lockRequestTime = now;
+                    opticsLocked = false;
+                    missedFrames = 0;
+                    state = STATE_LOCKING;
+                    listener.onLockRequested();
+                }
+                break;
+
+            case STATE_LOCKING:
+                if (trackLeave(isSameCandidate)) {
+                    return;
+                }
+                // Los cuadros tomados mientras la cámara converge no cuentan para la ráfaga
+                if (opticsLocked || now - lockRequestTime >= lockTimeout) {
+                    startBurst(confidences.length);
+                    state = STATE_CONFIRMING;
+                }
+                break;
+
+            case STATE_CONFIRMING:
+                if (trackLeave(isSameCandidate)) {
+                    return;
+                }
+                for (int i = 0; i < confidences.length; i++) {
+                    burstSum[i] += confidences[i];
+                }
+                burstCount++;
+                if (burstCount >= burstSize) {
+                    finishBurst();
+                }
+                break;
+
+            case STATE_CONFIRMED:
+                // Espera a que el billete salga o cambie para liberar la cámara
+                trackLeave(isSameCandidate);
+                break;
+        }
+    }
+
+    /**
+     * Indica que la cámara reportó el enfoque y la exposición bloqueados.
+     */
+    public void onOpticsLocked() {
+        if (state == STATE_LOCKING) {
+            opticsLocked = true;
+        }
+    }
+
+    /**
+     * Regresa al estado inicial, liberando la cámara si estaba bloqueada.
+     */
+    public void reset() {
+        if (state != STATE_IDLE) {
+            state = STATE_IDLE;
+            listener.onUnlockRequested();
+        }
+        candidateClass = -1;
+        burstCount = 0;
+        missedFrames = 0;
+        opticsLocked = false;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public int getCandidateClass() {
+        return candidateClass;
+    }
+
+    // Cuenta los cuadros sin el candidato actual y reinicia cuando el billete salió o cambió
+    private boolean trackLeave(boolean isSameCandidate) {
+        if (isSameCandidate) {
+            missedFrames = 0;
+            return false;
+        }
+        missedFrames++;
+        if (missedFrames >= leaveFrames) {
+            reset();
+            return true;
+        }
+        return false;
+    }
+
+    private void startBurst(int length) {
+        if (burstSum == null || burstSum.length != length) {
+            burstSum = new float[length];
+        } else {
+            for (int i = 0; i < length; i++) {
+                burstSum[i] = 0f;
+            }
+        }
+        burstCount = 0;
+    }
+
+    // Confirma con el promedio de la ráfaga o, sin liberar la cámara, empieza otra ráfaga
+    private void finishBurst() {
+        int maxPos = argMax(burstSum);
+        float meanConfidence = burstSum[maxPos] / burstCount;
+        if (maxPos == candidateClass && meanConfidence >= confirmThreshold) {
+            state = STATE_CONFIRMED;
+            listener.onConfirmed(maxPos, meanConfidence);
+        } else {
+            // La siguiente ráfaga busca la clase que dominó esta
+            candidateClass = maxPos;
+            startBurst(burstSum.length);
+        }
+    }
+
+    private static int argMax(float[] values) {
+        int maxPos = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[maxPos]) {
+                maxPos = i;
+            }
+        }
+        return maxPos;
+    }
+}
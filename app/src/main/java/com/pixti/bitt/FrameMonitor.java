@@ -0,0 +1,286 @@
+/**
+ * Nombre de la Clase: FrameMonitor
+ *
+ * Fecha: Octubre 2026
+ *
+ * Descripción:
+ * Monitor de fluidez de la interfaz. Usa `Choreographer.FrameCallback` para registrar el
+ * intervalo entre cuadros y contar los cuadros perdidos, y un hilo vigilante que detecta
+ * bloqueos del hilo principal mayores a un umbral y guarda la pila del código que bloquea.
+ * El resumen se puede consultar desde las pruebas y desde la pantalla de configuración.
+ *
+ * Notas adicionales:
+ * - Es una única instancia compartida por las actividades (`getInstance()`).
+ * - `start()` y `stop()` deben llamarse desde el hilo principal.
+ * - Solo se inicia en compilaciones de depuración; las pruebas locales usan
+ *   `onFrameInterval()` y `onStall()` sin iniciarlo.
+ */
+
+package com.pixti.bitt;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.Locale;
+
+public class FrameMonitor implements Choreographer.FrameCallback {
+    private static final String TAG = "FrameMonitor";
+
+    // Bloqueo mínimo del hilo principal que se reporta (ms)
+    private static final long STALL_THRESHOLD_MS = 200;
+    // Cada cuánto el vigilante revisa el latido del hilo principal (ms)
+    private static final long WATCHDOG_INTERVAL_MS = 50;
+
+    private static FrameMonitor instance;
+
+    /**
+     * Resumen inmutable de las métricas acumuladas.
+     */
+    public static class Summary {
+        public final String device;
+        public final float refreshRate;
+        public final long frames;
+        public final long droppedFrames;
+        public final long jankFrames;
+        public final float averageFrameMs;
+        public final float maxFrameMs;
+        public final long stalls;
+        public final long maxStallMs;
+        public final String lastStallStack;
+
+        Summary(String device, float refreshRate, long frames, long droppedFrames, long jankFrames,
+                float averageFrameMs, float maxFrameMs, long stalls, long maxStallMs, String lastStallStack) {
+            this.device = device;
+            this.refreshRate = refreshRate;
+            this.frames = frames;
+            this.droppedFrames = droppedFrames;
+            this.jankFrames = jankFrames;
+            this.averageFrameMs = averageFrameMs;
+            this.maxFrameMs = maxFrameMs;
+            this.stalls = stalls;
+            this.maxStallMs = maxStallMs;
+            this.lastStallStack = lastStallStack;
+        }
+
+        // Porcentaje de cuadros que tardaron más que un intervalo de refresco
+        public float jankPercent() {
+            return frames == 0 ? 0f : jankFrames * 100f / frames;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.US, "%s @ %.0f Hz\n", device, refreshRate));
+            sb.append(String.format(Locale.US, "Cuadros: %d  Perdidos: %d  Jank: %.1f%%\n",
+                    frames, droppedFrames, jankPercent()));
+            sb.append(String.format(Locale.US, "Intervalo medio: %.1f ms  Máximo: %.1f ms\n",
+                    averageFrameMs, maxFrameMs));
+            sb.append(String.format(Locale.US, "Bloqueos (>%d ms): %d  Máximo: %d ms",
+                    STALL_THRESHOLD_MS, stalls, maxStallMs));
+            if (lastStallStack != null) {
+                sb.append("\nÚltimo bloqueo:\n").append(lastStallStack);
+            }
+            return sb.toString();
+        }
+    }
+
+    // Se crea en start() para poder usar la clase en pruebas locales sin Looper
+    private Handler mainHandler;
+
+    // Intervalo esperado entre cuadros según la tasa de refresco de la pantalla
+    private long frameIntervalNanos = 1_000_000_000L / 60;
+    private float refreshRate = 60f;
+    private long lastFrameNanos = 0;
+    private boolean running = false;
+
+    // Métricas de cuadros; se escriben en el hilo principal
+    private long frames = 0;
+    private long droppedFrames = 0;
+    private long jankFrames = 0;
+    private long totalIntervalNanos = 0;
+    private long maxIntervalNanos = 0;
+
+    // Métricas de bloqueos; las escribe el hilo vigilante
+    private volatile long lastHeartbeat = 0;
+    private long stalls = 0;
+    private long maxStallMs = 0;
+    private String lastStallStack;
+    private Thread watchdog;
+
+    FrameMonitor() {
+    }
+
+    public static synchronized FrameMonitor getInstance() {
+        if (instance == null) {
+            instance = new FrameMonitor();
+        }
+        return instance;
+    }
+
+    /**
+     * Empieza a registrar cuadros y a vigilar el hilo principal.
+     * @param displayRefreshRate Tasa de refresco de la pantalla en Hz.
+     */
+    public void start(float displayRefreshRate) {
+        if (running) return;
+        running = true;
+        setRefreshRate(displayRefreshRate);
+        lastFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+
+        if (mainHandler == null) {
+            mainHandler = new Handler(Looper.getMainLooper());
+        }
+        lastHeartbeat = SystemClock.uptimeMillis();
+        mainHandler.post(heartbeatRunnable);
+        watchdog = new Thread(watchdogRunnable, "FrameMonitorWatchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /**
+     * Deja de registrar; las métricas acumuladas se conservan.
+     */
+    public void stop() {
+        if (!running) return;
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        mainHandler.removeCallbacks(heartbeatRunnable);
+        if (watchdog != null) {
+            watchdog.interrupt();
+            watchdog = null;
+        }
+    }
+
+    /**
+     * Ajusta el intervalo esperado entre cuadros.
+     * @param displayRefreshRate Tasa de refresco de la pantalla en Hz; se ignora si no es positiva.
+     */
+    synchronized void setRefreshRate(float displayRefreshRate) {
+        if (displayRefreshRate > 0) {
+            refreshRate = displayRefreshRate;
+            frameIntervalNanos = (long) (1_000_000_000L / displayRefreshRate);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        if (lastFrameNanos != 0) {
+            onFrameInterval(frameTimeNanos - lastFrameNanos);
+        }
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Registra el intervalo entre dos cuadros consecutivos.
+     * @param intervalNanos Tiempo entre cuadros en nanosegundos.
+     */
+    synchronized void onFrameInterval(long intervalNanos) {
+        frames++;
+        totalIntervalNanos += intervalNanos;
+        if (intervalNanos > maxIntervalNanos) {
+            maxIntervalNanos = intervalNanos;
+        }
+        // Un intervalo de N periodos de refresco implica N - 1 cuadros perdidos
+        long periods = (intervalNanos + frameIntervalNanos / 2) / frameIntervalNanos;
+        if (periods > 1) {
+            droppedFrames += periods - 1;
+            jankFrames++;
+        }
+    }
+
+    /**
+     * Registra un bloqueo del hilo principal.
+     * @param durationMs Duración del bloqueo en milisegundos.
+     * @param stack Pila del hilo principal durante el bloqueo.
+     */
+    synchronized void onStall(long durationMs, StackTraceElement[] stack) {
+        stalls++;
+        if (durationMs > maxStallMs) {
+            maxStallMs = durationMs;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (StackTraceElement element : stack) {
+            sb.append("  at ").append(element).append('\n');
+        }
+        lastStallStack = sb.toString();
+        Log.w(TAG, "Hilo principal bloqueado " + durationMs + " ms\n" + lastStallStack);
+    }
+
+    /**
+     * Actualiza la duración de un bloqueo que sigue en curso.
+     * @param durationMs Duración acumulada del bloqueo en milisegundos.
+     */
+    synchronized void onStallProgress(long durationMs) {
+        if (durationMs > maxStallMs) {
+            maxStallMs = durationMs;
+        }
+    }
+
+    /**
+     * Devuelve un resumen de las métricas acumuladas.
+     */
+    public synchronized Summary getSummary() {
+        float averageMs = frames == 0 ? 0f : totalIntervalNanos / (float) frames / 1_000_000f;
+        return new Summary(Build.MANUFACTURER + " " + Build.MODEL, refreshRate, frames, droppedFrames,
+                jankFrames, averageMs, maxIntervalNanos / 1_000_000f, stalls, maxStallMs, lastStallStack);
+    }
+
+    /**
+     * Reinicia todas las métricas.
+     */
+    public synchronized void reset() {
+        frames = 0;
+        droppedFrames = 0;
+        jankFrames = 0;
+        totalIntervalNanos = 0;
+        maxIntervalNanos = 0;
+        stalls = 0;
+        maxStallMs = 0;
+        lastStallStack = null;
+        lastFrameNanos = 0;
+    }
+
+    /**
+     * Latido del hilo principal; si deja de ejecutarse el vigilante detecta el bloqueo.
+     */
+    private final Runnable heartbeatRunnable = new Runnable() {
+        @Override
+        public void run() {
+            lastHeartbeat = SystemClock.uptimeMillis();
+            mainHandler.postDelayed(this, WATCHDOG_INTERVAL_MS);
+        }
+    };
+
+    /**
+     * Hilo vigilante: revisa el latido y captura la pila una vez por bloqueo.
+     */
+    private final Runnable watchdogRunnable = new Runnable() {
+        @Override
+        public void run() {
+            long reportedBeat = -1;
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(WATCHDOG_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long beat = lastHeartbeat;
+                long blocked = SystemClock.uptimeMillis() - beat - WATCHDOG_INTERVAL_MS;
+                if (blocked < STALL_THRESHOLD_MS) continue;
+                if (beat != reportedBeat) {
+                    reportedBeat = beat;
+                    onStall(blocked, Looper.getMainLooper().getThread().getStackTrace());
+                } else {
+                    onStallProgress(blocked);
+                }
+            }
+        }
+    };
+}
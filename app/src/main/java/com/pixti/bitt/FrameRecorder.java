@@ -0,0 +1,300 @@
+/**
+ * Nombre de la Clase: FrameRecorder
+ *
+ * Fecha: Octubre 2026
+ *
+ * Descripción:
+ * Grabador opcional de la sesión. Guarda los cuadros de análisis reducidos, junto con el
+ * vector de confianzas del modelo y el estado del reconocedor, en un archivo circular de
+ * tamaño fijo mapeado en memoria. Cuando el archivo se llena, los cuadros nuevos
+ * reemplazan a los más antiguos. `FrameRingExporter` convierte el archivo en imágenes y un CSV.
+ *
+ * Formato del archivo (little endian):
+ * - Encabezado de `HEADER_SIZE` bytes: magic, versión, número de ranuras, tamaño de ranura,
+ *   ancho, alto, número de confianzas y, en `OFFSET_WRITE_COUNT`, el total de cuadros escritos.
+ * - Cada ranura: marca de tiempo (long), estado (int), clase candidata (int),
+ *   `MAX_SCORES` confianzas (float) y los píxeles RGB del cuadro reducido.
+ *
+ * Notas adicionales:
+ * - `record()` no bloquea ni reserva memoria: copia el cuadro a un búfer intermedio
+ *   preasignado y un hilo escritor lo pasa al archivo. Si el escritor va atrasado,
+ *   el cuadro se descarta.
+ * - Abrir, mapear y cerrar el archivo también ocurre en el hilo escritor, para no
+ *   bloquear el hilo principal en `onResume()`/`onPause()`.
+ * - El escritor mantiene `RING_LOCK` mientras usa el archivo; así los escritores, la
+ *   exportación y el borrado nunca usan el archivo al mismo tiempo.
+ * - `record()` debe llamarse siempre desde el mismo hilo (el de análisis).
+ */
+
+package com.pixti.bitt;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class FrameRecorder {
+    private static final String TAG = "FrameRecorder";
+
+    // Nombre del archivo circular dentro de getFilesDir()
+    public static final String RING_FILE = "frames.ring";
+
+    static final int MAGIC = 0x42545246; // "BTRF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int OFFSET_WRITE_COUNT = 32;
+    static final int MAX_SCORES = 16;
+    // Marca de tiempo + estado + candidato + confianzas
+    static final int SLOT_META_SIZE = 8 + 4 + 4 + 4 * MAX_SCORES;
+
+    // Tamaño del cuadro reducido y número de ranuras del archivo
+    public static final int FRAME_SIZE = 64;
+    public static final int SLOT_COUNT = 256;
+    // Cuadros que pueden esperar al escritor antes de descartar
+    private static final int STAGING_COUNT = 4;
+
+    private final File ringFile;
+    private final int slotSize;
+    // Solo los usa el hilo escritor
+    private MappedByteBuffer mapped;
+    private long writeCount;
+
+    // Búferes intermedios entre el hilo de análisis y el escritor
+    private final byte[][] stagingArrays = new byte[STAGING_COUNT][];
+    private final ByteBuffer[] staging = new ByteBuffer[STAGING_COUNT];
+    private volatile long produced = 0;
+    private volatile long consumed = 0;
+    private long droppedFrames = 0;
+
+    // Píxeles del cuadro de análisis; se reservan con el primer cuadro
+    private int[] sourcePixels;
+
+    private volatile boolean running = true;
+    private final Thread writer;
+
+    // Acceso exclusivo al archivo circular entre escritores, exportación y borrado
+    private static final ReentrantLock RING_LOCK = new ReentrantLock();
+
+    /**
+     * Crea el grabador sin tocar el disco; el archivo se abre y se mapea en el hilo escritor.
+     * @param ringFile Archivo donde se guardan los cuadros.
+     */
+    public FrameRecorder(File ringFile) {
+        this.ringFile = ringFile;
+        slotSize = slotSize(FRAME_SIZE, FRAME_SIZE);
+        for (int i = 0; i < STAGING_COUNT; i++) {
+            stagingArrays[i] = new byte[slotSize];
+            staging[i] = ByteBuffer.wrap(stagingArrays[i]).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        writer = new Thread(writerRunnable, "FrameRecorderWriter");
+        writer.start();
+    }
+
+    static int slotSize(int width, int height) {
+        return SLOT_META_SIZE + width * height * 3;
+    }
+
+    /**
+     * Valida el encabezado del archivo circular contra su tamaño.
+     * @param header Búfer little endian con el encabezado en la posición 0.
+     * @param fileSize Tamaño del archivo en bytes.
+     * @throws IOException Si el encabezado no es válido o el archivo está truncado.
+     */
+    static void validateHeader(ByteBuffer header, long fileSize) throws IOException {
+        if (fileSize < HEADER_SIZE) {
+            throw new IOException("Archivo de cuadros truncado");
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Archivo de cuadros no válido");
+        }
+        int slotCount = header.getInt(8);
+        int slotSize = header.getInt(12);
+        int width = header.getInt(16);
+        int height = header.getInt(20);
+        int numScores = header.getInt(24);
+        long writeCount = header.getLong(OFFSET_WRITE_COUNT);
+        if (slotCount <= 0 || width <= 0 || height <= 0 || numScores <= 0 || numScores > MAX_SCORES
+                || writeCount < 0 || slotSize != slotSize(width, height)) {
+            throw new IOException("Encabezado de cuadros no válido");
+        }
+        if (fileSize != HEADER_SIZE + (long) slotCount * slotSize) {
+            throw new IOException("El tamaño del archivo de cuadros no coincide con el encabezado");
+        }
+    }
+
+    /**
+     * Toma el acceso exclusivo al archivo circular; un grabador activo lo mantiene ocupado.
+     * @param timeoutMs Tiempo máximo de espera en milisegundos.
+     * @return false si otro grabador sigue usando el archivo.
+     */
+    static boolean lockRing(long timeoutMs) throws InterruptedException {
+        return RING_LOCK.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    static void unlockRing() {
+        RING_LOCK.unlock();
+    }
+
+    /**
+     * Borra el archivo circular si ningún grabador lo está usando.
+     * @param ringFile Archivo donde se guardan los cuadros.
+     * @return false si hay una grabación activa.
+     */
+    public static boolean deleteRing(File ringFile) throws InterruptedException {
+        if (!lockRing(2000)) {
+            return false;
+        }
+        try {
+            return !ringFile.exists() || ringFile.delete();
+        } finally {
+            unlockRing();
+        }
+    }
+
+    // Abre el archivo circular, creándolo o reiniciándolo si su formato no coincide
+    private void openRing() throws IOException {
+        long totalSize = HEADER_SIZE + (long) slotSize * SLOT_COUNT;
+        try (RandomAccessFile file = new RandomAccessFile(ringFile, "rw")) {
+            long previousSize = file.length();
+            file.setLength(totalSize);
+            // El mapeo sigue siendo válido después de cerrar el canal
+            mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, totalSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            boolean reuse;
+            try {
+                validateHeader(mapped, previousSize);
+                reuse = mapped.getInt(8) == SLOT_COUNT
+                        && mapped.getInt(16) == FRAME_SIZE
+                        && mapped.getInt(20) == FRAME_SIZE
+                        && mapped.getInt(24) == MAX_SCORES;
+            } catch (IOException e) {
+                reuse = false;
+            }
+            if (reuse) {
+                // Continúa después de los cuadros de sesiones anteriores
+                writeCount = mapped.getLong(OFFSET_WRITE_COUNT);
+            } else {
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putInt(8, SLOT_COUNT);
+                mapped.putInt(12, slotSize);
+                mapped.putInt(16, FRAME_SIZE);
+                mapped.putInt(20, FRAME_SIZE);
+                mapped.putInt(24, MAX_SCORES);
+                mapped.putLong(OFFSET_WRITE_COUNT, 0);
+                writeCount = 0;
+            }
+        }
+    }
+
+    /**
+     * Copia el cuadro y su resultado al búfer intermedio sin bloquear.
+     * @param image Cuadro de análisis.
+     * @param confidences Salida del modelo para el cuadro.
+     * @param state Estado del reconocedor después del cuadro.
+     * @param candidateClass Clase candidata del reconocedor, o -1.
+     * @param timestamp Marca de tiempo del cuadro en milisegundos.
+     * @return false si el cuadro se descartó porque el escritor va atrasado o está detenido.
+     */
+    public boolean record(Bitmap image, float[] confidences, int state, int candidateClass, long timestamp) {
+        if (!running || produced - consumed >= STAGING_COUNT) {
+            droppedFrames++;
+            return false;
+        }
+        int index = (int) (produced % STAGING_COUNT);
+        ByteBuffer slot = staging[index];
+        byte[] slotBytes = stagingArrays[index];
+
+        slot.putLong(0, timestamp);
+        slot.putInt(8, state);
+        slot.putInt(12, candidateClass);
+        for (int i = 0; i < MAX_SCORES; i++) {
+            slot.putFloat(16 + 4 * i, i < confidences.length ? confidences[i] : 0f);
+        }
+
+        // Reduce el cuadro por vecino más cercano directamente al búfer intermedio
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (sourcePixels == null || sourcePixels.length != width * height) {
+            sourcePixels = new int[width * height];
+        }
+        image.getPixels(sourcePixels, 0, width, 0, 0, width, height);
+        int j = SLOT_META_SIZE;
+        for (int y = 0; y < FRAME_SIZE; y++) {
+            int row = (y * height / FRAME_SIZE) * width;
+            for (int x = 0; x < FRAME_SIZE; x++) {
+                int val = sourcePixels[row + x * width / FRAME_SIZE];
+                slotBytes[j++] = (byte) (val >> 16);
+                slotBytes[j++] = (byte) (val >> 8);
+                slotBytes[j++] = (byte) val;
+            }
+        }
+
+        produced++;
+        LockSupport.unpark(writer);
+        return true;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Detiene el grabador sin bloquear; el escritor guarda los cuadros pendientes y cierra.
+     * No se fuerza la escritura a disco porque el caché de páginas sobrevive al proceso.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Espera a que el escritor termine; solo para pruebas.
+     */
+    void join() throws InterruptedException {
+        writer.join();
+    }
+
+    /**
+     * Hilo escritor: abre el archivo y pasa los cuadros intermedios a la siguiente ranura.
+     */
+    private final Runnable writerRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // Espera a que termine el escritor anterior o una exportación en curso
+            RING_LOCK.lock();
+            try {
+                openRing();
+                while (true) {
+                    if (consumed == produced) {
+                        if (!running) return;
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    byte[] slotBytes = stagingArrays[(int) (consumed % STAGING_COUNT)];
+                    int offset = HEADER_SIZE + (int) (writeCount % SLOT_COUNT) * slotSize;
+                    mapped.position(offset);
+                    mapped.put(slotBytes);
+                    writeCount++;
+                    mapped.putLong(OFFSET_WRITE_COUNT, writeCount);
+                    consumed++;
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "No se pudo abrir el archivo de cuadros", e);
+                running = false;
+            } finally {
+                mapped = null;
+                RING_LOCK.unlock();
+            }
+        }
+    };
+}
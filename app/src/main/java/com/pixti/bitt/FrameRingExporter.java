@@ -0,0 +1,167 @@
+/**
+ * Nombre de la Clase: FrameRingExporter
+ *
+ * Fecha: Octubre 2026
+ *
+ * Descripción:
+ * Exporta el archivo circular de `FrameRecorder` a una carpeta: una imagen PNG por cuadro,
+ * nombrada con su orden y la clase de mayor confianza, y un archivo `scores.csv` con la
+ * marca de tiempo, el estado del reconocedor y todas las confianzas de cada cuadro.
+ *
+ * Notas adicionales:
+ * - Los cuadros se exportan del más antiguo al más reciente.
+ * - Debe ejecutarse fuera del hilo principal. Toma el acceso exclusivo al archivo: espera
+ *   a que un grabador cerrado termine de escribir y falla si hay una grabación activa.
+ * - Borra la exportación anterior de `outDir` para no mezclar sesiones.
+ * - Rechaza con `IOException` los archivos truncados o con encabezado inválido.
+ */
+
+package com.pixti.bitt;
+
+import android.graphics.Bitmap;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+public class FrameRingExporter {
+    // Nombre del CSV de confianzas dentro de la carpeta de salida
+    public static final String CSV_FILE = "scores.csv";
+
+    /**
+     * Exporta los cuadros grabados.
+     * @param ringFile Archivo circular escrito por `FrameRecorder`.
+     * @param outDir Carpeta de salida; se crea si no existe.
+     * @param labels Etiquetas de las clases del modelo.
+     * @return Número de cuadros exportados.
+     */
+    public static int export(File ringFile, File outDir, String[] labels) throws IOException {
+        if (!outDir.exists() && !outDir.mkdirs()) {
+            throw new IOException("No se pudo crear " + outDir);
+        }
+
+        try {
+            if (!FrameRecorder.lockRing(2000)) {
+                throw new IOException("Hay una grabación activa");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportación interrumpida", e);
+        }
+        try {
+            clearPreviousExport(outDir);
+            return exportLocked(ringFile, outDir, labels);
+        } finally {
+            FrameRecorder.unlockRing();
+        }
+    }
+
+    /**
+     * Borra las imágenes y el CSV de una exportación anterior.
+     * @param outDir Carpeta de salida.
+     */
+    static void clearPreviousExport(File outDir) throws IOException {
+        File[] files = outDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            boolean exported = name.equals(CSV_FILE) || (name.startsWith("frame_") && name.endsWith(".png"));
+            if (exported && !file.delete()) {
+                throw new IOException("No se pudo borrar " + file);
+            }
+        }
+    }
+
+    // Lee el archivo circular; se llama con el acceso exclusivo tomado
+    private static int exportLocked(File ringFile, File outDir, String[] labels) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(ringFile, "r");
+             FileChannel channel = file.getChannel()) {
+            long fileSize = channel.size();
+            if (fileSize < FrameRecorder.HEADER_SIZE) {
+                throw new IOException("Archivo de cuadros truncado");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            FrameRecorder.validateHeader(mapped, fileSize);
+            int slotCount = mapped.getInt(8);
+            int slotSize = mapped.getInt(12);
+            int width = mapped.getInt(16);
+            int height = mapped.getInt(20);
+            int numScores = Math.min(mapped.getInt(24), labels.length);
+            long writeCount = mapped.getLong(FrameRecorder.OFFSET_WRITE_COUNT);
+
+            long first = Math.max(0, writeCount - slotCount);
+            int[] pixels = new int[width * height];
+            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            int exported = 0;
+
+            try (PrintWriter csv = new PrintWriter(new FileWriter(new File(outDir, CSV_FILE)))) {
+                StringBuilder header = new StringBuilder("frame,image,timestamp,state,candidate,label");
+                for (int i = 0; i < numScores; i++) {
+                    header.append(',').append(labels[i]);
+                }
+                csv.println(header);
+
+                for (long n = first; n < writeCount; n++) {
+                    int offset = FrameRecorder.HEADER_SIZE + (int) (n % slotCount) * slotSize;
+                    ByteBuffer slot = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                    slot.position(offset);
+
+                    long timestamp = slot.getLong();
+                    int state = slot.getInt();
+                    int candidate = slot.getInt();
+                    float[] scores = new float[FrameRecorder.MAX_SCORES];
+                    for (int i = 0; i < scores.length; i++) {
+                        scores[i] = slot.getFloat();
+                    }
+
+                    // Etiqueta el cuadro con la clase de mayor confianza
+                    int maxPos = 0;
+                    for (int i = 1; i < numScores; i++) {
+                        if (scores[i] > scores[maxPos]) {
+                            maxPos = i;
+                        }
+                    }
+                    String label = labels[maxPos].replace(' ', '_');
+
+                    for (int i = 0; i < pixels.length; i++) {
+                        int r = slot.get() & 0xFF;
+                        int g = slot.get() & 0xFF;
+                        int b = slot.get() & 0xFF;
+                        pixels[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+                    }
+                    bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+
+                    String imageName = String.format(Locale.US, "frame_%06d_%s.png", n, label);
+                    try (OutputStream out = new FileOutputStream(new File(outDir, imageName))) {
+                        bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+                    }
+
+                    StringBuilder row = new StringBuilder();
+                    row.append(n).append(',').append(imageName).append(',').append(timestamp)
+                            .append(',').append(state).append(',').append(candidate)
+                            .append(',').append(labels[maxPos]);
+                    for (int i = 0; i < numScores; i++) {
+                        row.append(',').append(String.format(Locale.US, "%.6f", scores[i]));
+                    }
+                    csv.println(row);
+                    exported++;
+                }
+            } finally {
+                bitmap.recycle();
+            }
+            return exported;
+        }
+    }
+}
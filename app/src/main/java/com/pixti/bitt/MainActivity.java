@@ -25,15 +25,20 @@ import androidx.appcompat.app.AppCompatActivity;
 import android.Manifest;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
 import android.media.MediaPlayer;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -54,6 +59,7 @@ import com.pixti.bitt.ml.ModelUnquant;
 import org.tensorflow.lite.DataType;
 import org.tensorflow.lite.support.tensorbuffer.TensorBuffer;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -93,9 +99,31 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
     // Texto a voz
     private TextToSpeech textToSpeech;
 
-    // Variables para el reconocimiento
-    private long recognitionStartTime = 0;
-    private boolean isRecognized = false;
+    // Etiquetas de cada clase del modelo
+    static final String[] CLASSES = {
+            "0 20ar",
+            "1 20aa",
+            "2 20br",
+            "3 20ba",
+            "4 50br",
+            "5 500ba",
+            "6 500br",
+            "7 50ba"
+    };
+
+    // Reconocedor de dos fases: candidato con bloqueo AF/AE y ráfaga de confirmación
+    private CandidateRecognizer candidateRecognizer;
+    // Etiqueta de la petición que dispara el bloqueo AF y su número de cuadro (-1 mientras no llega)
+    private static final String LOCK_TRIGGER_TAG = "lockTrigger";
+    private long lockTriggerFrame = -1;
+    // Indica si la cámara tiene enfoque automático continuo; las de foco fijo no lo tienen
+    private boolean autoFocusSupported = false;
+
+    // Variante del modelo con entrada uint8; null si no está incluida
+    private Uint8Classifier uint8Classifier;
+
+    // Grabador opcional de cuadros de análisis; null si está desactivado
+    private FrameRecorder frameRecorder;
 
     // Preferencias compartidas
     private SharedPreferences preferences;
@@ -129,6 +157,12 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
 
         handler = new Handler(Looper.getMainLooper());
 
+        // Candidato desde 0.90, confirma con una ráfaga de 5 cuadros con promedio de 0.99
+        candidateRecognizer = new CandidateRecognizer(0.90f, 0.99f, 5, 500, 3, recognizerListener);
+
+        // Usa el modelo con normalización en el grafo si está disponible
+        uint8Classifier = Uint8Classifier.create(this, imageSize, CLASSES.length);
+
         // Programa la reproducción del sonido de escaneo
         handler.postDelayed(scanningSoundRunnable, 1000); // Inicia en 1 segundo
 
@@ -199,6 +233,35 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
         if (cameraDevice != null) {
             createCameraPreview(); // Actualiza la vista previa de la cámara
         }
+
+        // Mide la fluidez de la vista previa y los bloqueos del hilo principal (solo depuración)
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            FrameMonitor.getInstance().start(getDisplayRefreshRate());
+        }
+
+        // Inicia el grabador de cuadros si el usuario lo activó; el archivo se abre en su propio hilo
+        if (preferences.getBoolean("recordFrames", false)) {
+            frameRecorder = new FrameRecorder(new File(getFilesDir(), FrameRecorder.RING_FILE));
+        }
+    }
+
+    // Obtiene la tasa de refresco de la pantalla; getDefaultDisplay() solo se usa antes de API 30
+    @SuppressWarnings("deprecation")
+    private float getDisplayRefreshRate() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return getDisplay().getRefreshRate();
+        }
+        return getWindowManager().getDefaultDisplay().getRefreshRate();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        FrameMonitor.getInstance().stop();
+        if (frameRecorder != null) {
+            frameRecorder.close();
+            frameRecorder = null;
+        }
     }
 
     /**
@@ -251,12 +314,34 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
         try {
             CameraManager cameraManager = (CameraManager) getSystemService(CAMERA_SERVICE);
             String cameraId = cameraManager.getCameraIdList()[0]; // Obtiene el ID de la cámara
+            autoFocusSupported = isAutoFocusSupported(cameraManager.getCameraCharacteristics(cameraId));
             cameraManager.openCamera(cameraId, stateCallback, null); // Abre la cámara
         } catch (CameraAccessException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Verifica si la cámara admite enfoque continuo y tiene lente de foco variable.
+     * @param characteristics Características de la cámara.
+     */
+    private boolean isAutoFocusSupported(CameraCharacteristics characteristics) {
+        Float minimumFocusDistance = characteristics.get(CameraCharacteristics.LENS_INFO_MINIMUM_FOCUS_DISTANCE);
+        if (minimumFocusDistance == null || minimumFocusDistance == 0f) {
+            return false;
+        }
+        int[] afModes = characteristics.get(CameraCharacteristics.CONTROL_AF_AVAILABLE_MODES);
+        if (afModes == null) {
+            return false;
+        }
+        for (int mode : afModes) {
+            if (mode == CameraCharacteristics.CONTROL_AF_MODE_CONTINUOUS_PICTURE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Callback para el estado de la cámara.
      */
@@ -270,12 +355,14 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
         @Override
         public void onDisconnected(@NonNull CameraDevice camera) {
             cameraDevice.close();
+            cameraCaptureSessions = null;
         }
 
         @Override
         public void onError(@NonNull CameraDevice camera, int error) {
             cameraDevice.close();
             cameraDevice = null;
+            cameraCaptureSessions = null;
         }
     };
 
@@ -304,6 +391,7 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
                 public void onConfigured(@NonNull CameraCaptureSession cameraCaptureSession) {
                     if (cameraDevice == null) return;
                     cameraCaptureSessions = cameraCaptureSession;
+                    candidateRecognizer.reset(); // La sesión nueva empieza sin bloqueo
                     updatePreview(); // Actualiza la vista previa
                 }
 
@@ -311,6 +399,14 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
                 public void onConfigureFailed(@NonNull CameraCaptureSession cameraCaptureSession) {
                     Toast.makeText(MainActivity.this, "Configuration change", Toast.LENGTH_SHORT).show();
                 }
+
+                @Override
+                public void onClosed(@NonNull CameraCaptureSession cameraCaptureSession) {
+                    // Evita usar una sesión cerrada al bloquear o liberar la cámara
+                    if (cameraCaptureSessions == cameraCaptureSession) {
+                        cameraCaptureSessions = null;
+                    }
+                }
             }, null);
         } catch (CameraAccessException e) {
             e.printStackTrace();
@@ -325,18 +421,127 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
             Log.e("MainActivity", "Update preview error, return");
         }
         captureRequestBuilder.set(CaptureRequest.CONTROL_MODE, CaptureRequest.CONTROL_MODE_AUTO);
+        if (autoFocusSupported) {
+            captureRequestBuilder.set(CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_PICTURE);
+        }
+        captureRequestBuilder.set(CaptureRequest.CONTROL_AE_LOCK, false);
         try {
-            cameraCaptureSessions.setRepeatingRequest(captureRequestBuilder.build(), null, null);
-        } catch (CameraAccessException e) {
+            cameraCaptureSessions.setRepeatingRequest(captureRequestBuilder.build(), lockCaptureCallback, null);
+        } catch (CameraAccessException | IllegalStateException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Bloquea el enfoque y la exposición sobre el billete candidato.
+     */
+    private void lockOptics() {
+        if (cameraCaptureSessions == null) return;
+        lockTriggerFrame = -1;
+        try {
+            // Dispara el enfoque una sola vez; en modo continuo queda bloqueado al terminar.
+            // Sin enfoque automático la petición etiquetada solo marca el inicio del bloqueo AE.
+            if (autoFocusSupported) {
+                captureRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_START);
+            }
+            captureRequestBuilder.set(CaptureRequest.CONTROL_AE_LOCK, true);
+            captureRequestBuilder.setTag(LOCK_TRIGGER_TAG);
+            cameraCaptureSessions.capture(captureRequestBuilder.build(), lockCaptureCallback, null);
+            captureRequestBuilder.setTag(null);
+            if (autoFocusSupported) {
+                captureRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_IDLE);
+            }
+            cameraCaptureSessions.setRepeatingRequest(captureRequestBuilder.build(), lockCaptureCallback, null);
+        } catch (CameraAccessException | IllegalStateException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Libera el enfoque y la exposición para volver al modo automático continuo.
+     */
+    private void unlockOptics() {
+        if (cameraCaptureSessions == null) return;
+        try {
+            if (autoFocusSupported) {
+                captureRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_CANCEL);
+                cameraCaptureSessions.capture(captureRequestBuilder.build(), lockCaptureCallback, null);
+                captureRequestBuilder.set(CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_IDLE);
+            }
+            captureRequestBuilder.set(CaptureRequest.CONTROL_AE_LOCK, false);
+            cameraCaptureSessions.setRepeatingRequest(captureRequestBuilder.build(), lockCaptureCallback, null);
+        } catch (CameraAccessException | IllegalStateException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Callback de captura que avisa al reconocedor cuando la cámara terminó de bloquearse.
+     */
+    private final CameraCaptureSession.CaptureCallback lockCaptureCallback = new CameraCaptureSession.CaptureCallback() {
+        @Override
+        public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
+            if (candidateRecognizer.getState() != CandidateRecognizer.STATE_LOCKING) return;
+
+            // Los resultados anteriores al disparo todavía reportan el bloqueo previo
+            if (LOCK_TRIGGER_TAG.equals(request.getTag())) {
+                lockTriggerFrame = result.getFrameNumber();
+            }
+            if (lockTriggerFrame < 0 || result.getFrameNumber() < lockTriggerFrame) return;
+
+            Integer afState = result.get(CaptureResult.CONTROL_AF_STATE);
+            Integer aeState = result.get(CaptureResult.CONTROL_AE_STATE);
+            // Sin enfoque automático no hay nada que esperar del AF
+            boolean afLocked = !autoFocusSupported
+                    || afState == null
+                    || afState == CaptureResult.CONTROL_AF_STATE_FOCUSED_LOCKED
+                    || afState == CaptureResult.CONTROL_AF_STATE_NOT_FOCUSED_LOCKED;
+            boolean aeLocked = aeState == null || aeState == CaptureResult.CONTROL_AE_STATE_LOCKED;
+            if (afLocked && aeLocked) {
+                candidateRecognizer.onOpticsLocked();
+            }
+        }
+    };
+
+    /**
+     * Listener del reconocedor: bloquea la cámara con el candidato y anuncia la confirmación.
+     */
+    private final CandidateRecognizer.Listener recognizerListener = new CandidateRecognizer.Listener() {
+        @Override
+        public void onLockRequested() {
+            lockOptics();
+        }
+
+        @Override
+        public void onUnlockRequested() {
+            unlockOptics();
+        }
+
+        @Override
+        public void onConfirmed(int classIndex, float confidence) {
+            lastResult = convertClassToValue(CLASSES[classIndex]);
+            lastConfidence = confidence;
+            lastDetectionTime = System.currentTimeMillis();
+            updateUI();
+            resetAfterInterval();
+            // Reproduce el sonido de reconocimiento
+            scanningMediaPlayer.pause();
+            recognizedMediaPlayer.start();
+            // Lee el resultado en voz alta
+            speakOut(lastResult);
+        }
+    };
+
     /**
      * Clasifica la imagen capturada utilizando un modelo de machine learning.
      * @param image El bitmap de la imagen capturada.
      */
     public void classifyImage(Bitmap image) {
+        if (uint8Classifier != null) {
+            // La entrada uint8 se copia en bloque y el grafo hace la división entre 255
+            onConfidences(image, uint8Classifier.classify(image));
+            return;
+        }
         try {
             // Carga el modelo TFLite
             ModelUnquant model = ModelUnquant.newInstance(getApplicationContext());
@@ -367,56 +572,7 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
 
             float[] confidences = outputFeature0.getFloatArray();
 
-            // Encuentra la clase con la mayor confianza
-            int maxPos = 0;
-            float maxConfidence = 0;
-            for (int i = 0; i < confidences.length; i++) {
-                if (confidences[i] > maxConfidence) {
-                    maxConfidence = confidences[i];
-                    maxPos = i;
-                }
-            }
-
-            // Asigna etiquetas a cada clase (ejemplo)
-            String[] classes = {
-                    "0 20ar",
-                            "1 20aa",
-                            "2 20br",
-                            "3 20ba",
-                            "4 50br",
-                            "5 500ba",
-                            "6 500br",
-                            "7 50ba"
-            };
-
-
-
-
-
-            float confidenceThreshold = 0.99f; // Umbral de confianza
-
-            // Verifica si la confianza es mayor al umbral y el resultado se mantiene durante 2 segundos
-            if (maxConfidence >= confidenceThreshold) {
-                if (!isRecognized) {
-                    isRecognized = true;
-                    recognitionStartTime = System.currentTimeMillis();
-                } else if (System.currentTimeMillis() - recognitionStartTime >= 2000) {
-                    //lastResult = classes[maxPos];
-                    lastResult = convertClassToValue(classes[maxPos]);
-                    lastConfidence = maxConfidence;
-                    lastDetectionTime = System.currentTimeMillis();
-                    updateUI();
-                    resetAfterInterval();
-                    // Reproduce el sonido de reconocimiento
-                    scanningMediaPlayer.pause();
-                    recognizedMediaPlayer.start();
-                    // Lee el resultado en voz alta
-                    speakOut(lastResult);
-                    isRecognized = false; // Resetea el flag después de reconocimiento
-                }
-            } else {
-                isRecognized = false;
-            }
+            onConfidences(image, confidences);
 
             model.close();
         } catch (IOException e) {
@@ -425,6 +581,21 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
         }
     }
 
+    /**
+     * Pasa el resultado de un cuadro al reconocedor y, si está activo, al grabador.
+     * @param image El bitmap clasificado.
+     * @param confidences Las confianzas del modelo para el cuadro.
+     */
+    private void onConfidences(Bitmap image, float[] confidences) {
+        long now = System.currentTimeMillis();
+        // El reconocedor decide si hay candidato, bloquea la cámara y confirma con la ráfaga
+        candidateRecognizer.onFrame(confidences, now);
+        if (frameRecorder != null) {
+            frameRecorder.record(image, confidences, candidateRecognizer.getState(),
+                    candidateRecognizer.getCandidateClass(), now);
+        }
+    }
+
     // Convierte la clase detectada en un valor en pesos
 
     private String convertClassToValue(String detectedClass) {
@@ -527,6 +698,9 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
             textToSpeech.stop();
             textToSpeech.shutdown();
         }
+        if (uint8Classifier != null) {
+            uint8Classifier.close();
+        }
     }
 
 
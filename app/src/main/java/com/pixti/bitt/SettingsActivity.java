@@ -13,26 +13,43 @@
  * Funcionalidades:
  * - Activar o desactivar sonidos dentro de la aplicación.
  * - Activar o desactivar el uso del flash de la cámara.
+ * - Activar o desactivar la grabación de cuadros de análisis, exportarlos y borrarlos.
+ * - En compilaciones de depuración, mostrar el resumen de `FrameMonitor`.
  *
  * Notas adicionales:
  * - Los ajustes se cargan y se aplican al iniciar la actividad.
  * - Los cambios en las preferencias se guardan de forma asíncrona usando `apply()`.
+ * - La exportación y el borrado de cuadros corren en un hilo aparte y fallan mientras la
+ *   cámara sigue grabando.
  *
  * Requerimientos:
- * - `activity_settings.xml` debe contener dos switches con los IDs `switch_sounds` y `switch_flash`.
+ * - `activity_settings.xml` debe contener los switches `switch_sounds`, `switch_flash` y
+ *   `switch_record`, los botones `button_export` y `button_clear` y el texto `text_frame_stats`.
  */
 
 package com.pixti.bitt;
 
 import androidx.appcompat.app.AppCompatActivity;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
 import android.widget.CompoundButton;
 import android.widget.Switch;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.File;
+import java.io.IOException;
 import android.content.SharedPreferences;
 
 public class SettingsActivity extends AppCompatActivity {
     private Switch soundsSwitch;
     private Switch flashSwitch;
+    private Switch recordSwitch;
+    private Button exportButton;
+    private Button clearButton;
     private SharedPreferences preferences;
     private SharedPreferences.Editor preferencesEditor;
 
@@ -44,6 +61,9 @@ public class SettingsActivity extends AppCompatActivity {
         // Inicializa los switches para sonidos y flash
         soundsSwitch = findViewById(R.id.switch_sounds);
         flashSwitch = findViewById(R.id.switch_flash);
+        recordSwitch = findViewById(R.id.switch_record);
+        exportButton = findViewById(R.id.button_export);
+        clearButton = findViewById(R.id.button_clear);
 
         // Obtiene las preferencias compartidas
         preferences = getSharedPreferences("AppPreferences", MODE_PRIVATE);
@@ -52,6 +72,7 @@ public class SettingsActivity extends AppCompatActivity {
         // Configura el estado inicial de los switches basándose en las preferencias almacenadas
         soundsSwitch.setChecked(preferences.getBoolean("soundsEnabled", true));
         flashSwitch.setChecked(preferences.getBoolean("flashEnabled", true));
+        recordSwitch.setChecked(preferences.getBoolean("recordFrames", false));
 
         // Configura un listener para el switch de sonidos
         soundsSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
@@ -72,5 +93,116 @@ public class SettingsActivity extends AppCompatActivity {
                 preferencesEditor.apply(); // Aplica los cambios de forma asíncrona
             }
         });
+
+        // Configura un listener para el switch de grabación de cuadros
+        recordSwitch.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                // Guarda el nuevo estado del switch de grabación en las preferencias
+                preferencesEditor.putBoolean("recordFrames", isChecked);
+                preferencesEditor.apply(); // Aplica los cambios de forma asíncrona
+            }
+        });
+
+        // Exporta los cuadros grabados como imágenes y un CSV de confianzas
+        exportButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                exportFrames();
+            }
+        });
+
+        // Borra el archivo de cuadros y la última exportación
+        clearButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                clearFrames();
+            }
+        });
+
+        // Muestra las métricas de fluidez solo en compilaciones de depuración
+        TextView frameStatsText = findViewById(R.id.text_frame_stats);
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            frameStatsText.setText(FrameMonitor.getInstance().getSummary().toString());
+            frameStatsText.setVisibility(View.VISIBLE);
+        }
+    }
+
+    /**
+     * Exporta el archivo circular de cuadros en un hilo aparte para no bloquear la interfaz.
+     */
+    private void exportFrames() {
+        final File ringFile = new File(getFilesDir(), FrameRecorder.RING_FILE);
+        if (!ringFile.exists()) {
+            Toast.makeText(this, "No hay cuadros grabados", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        final File outDir = getExportDir();
+        // Evita que un segundo toque inicie otra exportación o un borrado sobre los mismos archivos
+        setFrameButtonsEnabled(false);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                String message;
+                try {
+                    int count = FrameRingExporter.export(ringFile, outDir, MainActivity.CLASSES);
+                    message = count + " cuadros exportados a " + outDir.getAbsolutePath();
+                } catch (IOException e) {
+                    Log.e("SettingsActivity", "Falló la exportación de cuadros", e);
+                    message = "Falló la exportación de cuadros";
+                }
+                final String toastMessage = message;
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        setFrameButtonsEnabled(true);
+                        Toast.makeText(SettingsActivity.this, toastMessage, Toast.LENGTH_LONG).show();
+                    }
+                });
+            }
+        }).start();
+    }
+
+    /**
+     * Borra el archivo circular de cuadros y la carpeta de exportación en un hilo aparte.
+     */
+    private void clearFrames() {
+        final File ringFile = new File(getFilesDir(), FrameRecorder.RING_FILE);
+        final File outDir = getExportDir();
+        setFrameButtonsEnabled(false);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                String message;
+                try {
+                    if (FrameRecorder.deleteRing(ringFile)) {
+                        FrameRingExporter.clearPreviousExport(outDir);
+                        message = "Cuadros borrados";
+                    } else {
+                        message = "Hay una grabación activa";
+                    }
+                } catch (IOException | InterruptedException e) {
+                    Log.e("SettingsActivity", "Falló el borrado de cuadros", e);
+                    message = "Falló el borrado de cuadros";
+                }
+                final String toastMessage = message;
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        setFrameButtonsEnabled(true);
+                        Toast.makeText(SettingsActivity.this, toastMessage, Toast.LENGTH_SHORT).show();
+                    }
+                });
+            }
+        }).start();
+    }
+
+    private File getExportDir() {
+        return new File(getExternalFilesDir(null), "frames_export");
+    }
+
+    private void setFrameButtonsEnabled(boolean enabled) {
+        exportButton.setEnabled(enabled);
+        clearButton.setEnabled(enabled);
     }
 }
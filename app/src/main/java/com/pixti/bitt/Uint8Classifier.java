@@ -0,0 +1,140 @@
+/**
+ * Nombre de la Clase: Uint8Classifier
+ *
+ * Fecha: Octubre 2026
+ *
+ * Descripción:
+ * Clasificador para la variante del modelo que recibe la imagen RGB sin normalizar
+ * (uint8 `[1,224,224,3]`) y hace la división entre 255 dentro del grafo. La entrada ocupa
+ * la cuarta parte de memoria que la versión en flotante.
+ *
+ * Notas adicionales:
+ * - El modelo se busca en `assets/model_uint8.tflite`; si no existe, `create()` devuelve
+ *   null y la aplicación sigue usando `ModelUnquant`.
+ * - Los búferes se reservan una sola vez y se reutilizan en cada cuadro.
+ * - El cuadro de análisis es un `Bitmap` ARGB de `TextureView`, que no ofrece RGB empacado.
+ *   Por eso sigue habiendo un ciclo en Java que quita el canal alfa (`packRgb()`); lo que
+ *   se elimina son las conversiones a flotante y las llamadas a `putFloat` por píxel, y la
+ *   copia al tensor es una sola escritura en bloque.
+ */
+
+package com.pixti.bitt;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+import org.tensorflow.lite.support.common.FileUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+public class Uint8Classifier {
+    private static final String TAG = "Uint8Classifier";
+
+    // Nombre del modelo uint8 dentro de assets
+    public static final String MODEL_FILE = "model_uint8.tflite";
+
+    private final Interpreter interpreter;
+    private final int imageSize;
+
+    // Búferes reutilizados entre cuadros
+    private final int[] intValues;
+    private final byte[] rgbBytes;
+    private final ByteBuffer inputBuffer;
+    private final float[][] output;
+
+    private Uint8Classifier(Interpreter interpreter, int imageSize, int numClasses) {
+        this.interpreter = interpreter;
+        this.imageSize = imageSize;
+        intValues = new int[imageSize * imageSize];
+        rgbBytes = new byte[imageSize * imageSize * 3];
+        inputBuffer = ByteBuffer.allocateDirect(rgbBytes.length);
+        inputBuffer.order(ByteOrder.nativeOrder());
+        output = new float[1][numClasses];
+    }
+
+    /**
+     * Carga el modelo uint8 si está incluido en la aplicación.
+     * @param context Contexto para leer los assets.
+     * @param imageSize Lado de la imagen de entrada esperada.
+     * @param numClasses Número de clases que espera la aplicación.
+     * @return El clasificador, o null si el modelo no existe o no tiene la firma esperada.
+     */
+    @Nullable
+    public static Uint8Classifier create(Context context, int imageSize, int numClasses) {
+        Interpreter interpreter;
+        try {
+            interpreter = new Interpreter(FileUtil.loadMappedFile(context, MODEL_FILE));
+        } catch (IOException e) {
+            // La variante uint8 es opcional
+            return null;
+        }
+
+        Tensor input = interpreter.getInputTensor(0);
+        Tensor output = interpreter.getOutputTensor(0);
+        if (!isSupportedSignature(input.dataType(), input.shape(), output.dataType(), output.shape(),
+                imageSize, numClasses)) {
+            Log.e(TAG, "Firma no soportada: " + input.dataType() + Arrays.toString(input.shape())
+                    + " -> " + output.dataType() + Arrays.toString(output.shape()));
+            interpreter.close();
+            return null;
+        }
+        return new Uint8Classifier(interpreter, imageSize, numClasses);
+    }
+
+    /**
+     * Verifica que el modelo reciba uint8 `[1,imageSize,imageSize,3]` y devuelva float32 `[1,numClasses]`.
+     */
+    static boolean isSupportedSignature(DataType inputType, int[] inputShape, DataType outputType,
+                                        int[] outputShape, int imageSize, int numClasses) {
+        return inputType == DataType.UINT8
+                && Arrays.equals(inputShape, new int[]{1, imageSize, imageSize, 3})
+                && outputType == DataType.FLOAT32
+                && Arrays.equals(outputShape, new int[]{1, numClasses});
+    }
+
+    /**
+     * Quita el canal alfa de los píxeles ARGB y los escribe como RGB empacado.
+     * @param argb Píxeles en el formato de {@link Bitmap#getPixels}.
+     * @param rgb Destino con al menos `3 * argb.length` bytes.
+     */
+    static void packRgb(int[] argb, byte[] rgb) {
+        int j = 0;
+        for (int val : argb) {
+            rgb[j++] = (byte) (val >> 16);
+            rgb[j++] = (byte) (val >> 8);
+            rgb[j++] = (byte) val;
+        }
+    }
+
+    /**
+     * Clasifica la imagen y devuelve las confianzas de cada clase.
+     * @param image Bitmap de `imageSize` x `imageSize`.
+     * @return Arreglo de confianzas; se reutiliza en la siguiente llamada.
+     */
+    public float[] classify(Bitmap image) {
+        image.getPixels(intValues, 0, imageSize, 0, 0, imageSize, imageSize);
+
+        // Empaca ARGB en RGB; la normalización la hace el grafo
+        packRgb(intValues, rgbBytes);
+
+        inputBuffer.rewind();
+        inputBuffer.put(rgbBytes);
+        inputBuffer.rewind();
+
+        interpreter.run(inputBuffer, output);
+        return output[0];
+    }
+
+    public void close() {
+        interpreter.close();
+    }
+}
@@ -0,0 +1,238 @@
+package com.pixti.bitt;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas locales de la máquina de estados de {@link CandidateRecognizer}.
+ */
+public class CandidateRecognizerTest {
+    private static final int NUM_CLASSES = 8;
+    private static final int BURST_SIZE = 3;
+    private static final long LOCK_TIMEOUT = 500;
+    private static final int LEAVE_FRAMES = 2;
+
+    // Listener falso que cuenta las peticiones del reconocedor
+    private static class FakeListener implements CandidateRecognizer.Listener {
+        int locks = 0;
+        int unlocks = 0;
+        int confirmations = 0;
+        int confirmedClass = -1;
+        float confirmedConfidence = 0f;
+
+        @Override
+        public void onLockRequested() {
+            locks++;
+        }
+
+        @Override
+        public void onUnlockRequested() {
+            unlocks++;
+        }
+
+        @Override
+        public void onConfirmed(int classIndex, float confidence) {
+            confirmations++;
+            confirmedClass = classIndex;
+            confirmedConfidence = confidence;
+        }
+    }
+
+    private FakeListener listener;
+    private CandidateRecognizer recognizer;
+    private long now;
+
+    @Before
+    public void setUp() {
+        listener = new FakeListener();
+        recognizer = new CandidateRecognizer(0.90f, 0.99f, BURST_SIZE, LOCK_TIMEOUT, LEAVE_FRAMES, listener);
+        now = 1000;
+    }
+
+    // Cuadro con la confianza indicada en una clase y el resto repartido en la clase 0 o 1
+    private float[] frame(int classIndex, float confidence) {
+        float[] confidences = new float[NUM_CLASSES];
+        confidences[classIndex] = confidence;
+        confidences[classIndex == 0 ? 1 : 0] = 1f - confidence;
+        return confidences;
+    }
+
+    private void feed(int classIndex, float confidence) {
+        now += 33;
+        recognizer.onFrame(frame(classIndex, confidence), now);
+    }
+
+    // Lleva el reconocedor a la fase de ráfaga con la cámara ya bloqueada
+    private void lockOn(int classIndex) {
+        feed(classIndex, 0.995f);
+        recognizer.onOpticsLocked();
+        feed(classIndex, 0.995f);
+        assertEquals(CandidateRecognizer.STATE_CONFIRMING, recognizer.getState());
+    }
+
+    @Test
+    public void frameBelowThreshold_staysIdle() {
+        feed(4, 0.85f);
+        assertEquals(CandidateRecognizer.STATE_IDLE, recognizer.getState());
+        assertEquals(0, listener.locks);
+    }
+
+    @Test
+    public void candidateFrame_requestsLockOnce() {
+        feed(4, 0.92f);
+        feed(4, 0.95f);
+        assertEquals(CandidateRecognizer.STATE_LOCKING, recognizer.getState());
+        assertEquals(4, recognizer.getCandidateClass());
+        assertEquals(1, listener.locks);
+    }
+
+    @Test
+    public void framesBeforeLock_doNotCountForBurst() {
+        feed(4, 0.995f);
+        for (int i = 0; i < BURST_SIZE * 2; i++) {
+            feed(4, 0.995f);
+        }
+        // Sin bloqueo y antes del tiempo límite no hay confirmación
+        assertEquals(CandidateRecognizer.STATE_LOCKING, recognizer.getState());
+        assertEquals(0, listener.confirmations);
+    }
+
+    @Test
+    public void lockTimeout_startsBurstWithoutCameraReport() {
+        feed(4, 0.995f);
+        now += LOCK_TIMEOUT;
+        feed(4, 0.995f);
+        assertEquals(CandidateRecognizer.STATE_CONFIRMING, recognizer.getState());
+    }
+
+    @Test
+    public void stableBurst_confirmsWithMeanConfidence() {
+        lockOn(7);
+        feed(7, 0.99f);
+        feed(7, 1.00f);
+        feed(7, 0.995f);
+        assertEquals(CandidateRecognizer.STATE_CONFIRMED, recognizer.getState());
+        assertEquals(1, listener.confirmations);
+        assertEquals(7, listener.confirmedClass);
+        assertEquals(0.995f, listener.confirmedConfidence, 1e-4f);
+    }
+
+    @Test
+    public void heldNote_isAnnouncedOnce() {
+        lockOn(7);
+        for (int i = 0; i < 20; i++) {
+            feed(7, 0.999f);
+        }
+        assertEquals(1, listener.confirmations);
+        assertEquals(0, listener.unlocks);
+    }
+
+    @Test
+    public void failedBurst_keepsLockAndStartsAnotherBurst() {
+        lockOn(4);
+        // Promedio cercano a 0.95: no confirma pero sigue siendo candidato
+        for (int i = 0; i < BURST_SIZE * 3; i++) {
+            feed(4, 0.95f);
+        }
+        assertEquals(CandidateRecognizer.STATE_CONFIRMING, recognizer.getState());
+        assertEquals(1, listener.locks);
+        assertEquals(0, listener.unlocks);
+        assertEquals(0, listener.confirmations);
+
+        // Cuando la imagen mejora se confirma sin volver a bloquear
+        for (int i = 0; i < BURST_SIZE; i++) {
+            feed(4, 0.999f);
+        }
+        assertEquals(1, listener.confirmations);
+        assertEquals(1, listener.locks);
+    }
+
+    @Test
+    public void classChangeMidBurst_unlocksAndRelocksOnNewClass() {
+        lockOn(4);
+        feed(4, 0.995f);
+        feed(7, 0.995f);
+        feed(7, 0.995f);
+        // Dos cuadros de otra clase cuentan como salida del billete
+        assertEquals(0, listener.confirmations);
+        assertEquals(CandidateRecognizer.STATE_IDLE, recognizer.getState());
+        assertEquals(1, listener.unlocks);
+
+        lockOn(7);
+        for (int i = 0; i < BURST_SIZE; i++) {
+            feed(7, 0.995f);
+        }
+        assertEquals(1, listener.confirmations);
+        assertEquals(7, listener.confirmedClass);
+        assertEquals(2, listener.locks);
+    }
+
+    @Test
+    public void noteSwappedWhileConfirmed_isAnnounced() {
+        lockOn(4);
+        for (int i = 0; i < BURST_SIZE; i++) {
+            feed(4, 0.999f);
+        }
+        assertEquals(1, listener.confirmations);
+
+        // Cambio directo de billete, sin cuadros de baja confianza en medio
+        for (int i = 0; i < 20; i++) {
+            feed(7, 0.999f);
+            recognizer.onOpticsLocked();
+        }
+        assertEquals(1, listener.unlocks);
+        assertEquals(2, listener.locks);
+        assertEquals(2, listener.confirmations);
+        assertEquals(7, listener.confirmedClass);
+        assertEquals(CandidateRecognizer.STATE_CONFIRMED, recognizer.getState());
+    }
+
+    @Test
+    public void noteLeaving_unlocksAfterLeaveFrames() {
+        lockOn(4);
+        feed(4, 0.5f);
+        assertEquals(0, listener.unlocks);
+        feed(4, 0.5f);
+        assertEquals(CandidateRecognizer.STATE_IDLE, recognizer.getState());
+        assertEquals(1, listener.unlocks);
+        assertEquals(-1, recognizer.getCandidateClass());
+    }
+
+    @Test
+    public void singleMissedFrame_doesNotUnlock() {
+        lockOn(4);
+        feed(4, 0.5f);
+        feed(4, 0.995f);
+        feed(4, 0.5f);
+        assertEquals(CandidateRecognizer.STATE_CONFIRMING, recognizer.getState());
+        assertEquals(0, listener.unlocks);
+    }
+
+    @Test
+    public void confirmedNote_leavingAllowsNewAnnouncement() {
+        lockOn(7);
+        for (int i = 0; i < BURST_SIZE; i++) {
+            feed(7, 0.999f);
+        }
+        for (int i = 0; i < LEAVE_FRAMES; i++) {
+            feed(7, 0.3f);
+        }
+        assertEquals(1, listener.unlocks);
+
+        lockOn(4);
+        for (int i = 0; i < BURST_SIZE; i++) {
+            feed(4, 0.999f);
+        }
+        assertEquals(2, listener.confirmations);
+        assertEquals(4, listener.confirmedClass);
+        assertEquals(2, listener.locks);
+    }
+
+    @Test
+    public void resetWhileIdle_doesNotRequestUnlock() {
+        recognizer.reset();
+        assertEquals(0, listener.unlocks);
+    }
+}
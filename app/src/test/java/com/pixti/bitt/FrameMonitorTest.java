@@ -0,0 +1,110 @@
+package com.pixti.bitt;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas locales del conteo de cuadros y bloqueos de {@link FrameMonitor}.
+ */
+public class FrameMonitorTest {
+    private static final long MS = 1_000_000L;
+
+    private FrameMonitor monitor;
+
+    @Before
+    public void setUp() {
+        monitor = new FrameMonitor();
+        monitor.setRefreshRate(60f);
+    }
+
+    @Test
+    public void onTimeFrames_areNotDroppedOrJanky() {
+        for (int i = 0; i < 10; i++) {
+            monitor.onFrameInterval(16_666_666L);
+        }
+        FrameMonitor.Summary summary = monitor.getSummary();
+        assertEquals(10, summary.frames);
+        assertEquals(0, summary.droppedFrames);
+        assertEquals(0, summary.jankFrames);
+        assertEquals(0f, summary.jankPercent(), 0f);
+    }
+
+    @Test
+    public void intervalUnderOneAndAHalfPeriods_roundsToOnTime() {
+        monitor.onFrameInterval(24 * MS);
+        FrameMonitor.Summary summary = monitor.getSummary();
+        assertEquals(0, summary.droppedFrames);
+        assertEquals(0, summary.jankFrames);
+    }
+
+    @Test
+    public void intervalOfTwoPeriods_dropsOneFrame() {
+        monitor.onFrameInterval(26 * MS);
+        FrameMonitor.Summary summary = monitor.getSummary();
+        assertEquals(1, summary.droppedFrames);
+        assertEquals(1, summary.jankFrames);
+    }
+
+    @Test
+    public void longInterval_countsEveryMissedPeriodButOneJank() {
+        // 100 ms a 60 Hz son 6 periodos: 5 cuadros perdidos en un solo salto
+        monitor.onFrameInterval(100 * MS);
+        FrameMonitor.Summary summary = monitor.getSummary();
+        assertEquals(5, summary.droppedFrames);
+        assertEquals(1, summary.jankFrames);
+    }
+
+    @Test
+    public void higherRefreshRate_usesShorterPeriod() {
+        monitor.setRefreshRate(120f);
+        // 16.7 ms a 120 Hz son 2 periodos
+        monitor.onFrameInterval(16_666_666L);
+        assertEquals(1, monitor.getSummary().droppedFrames);
+    }
+
+    @Test
+    public void summary_averagesAndTracksMaximum() {
+        monitor.onFrameInterval(16 * MS);
+        monitor.onFrameInterval(16 * MS);
+        monitor.onFrameInterval(16 * MS);
+        monitor.onFrameInterval(52 * MS);
+        FrameMonitor.Summary summary = monitor.getSummary();
+        assertEquals(4, summary.frames);
+        assertEquals(25f, summary.averageFrameMs, 0.01f);
+        assertEquals(52f, summary.maxFrameMs, 0.01f);
+        assertEquals(1, summary.jankFrames);
+        assertEquals(25f, summary.jankPercent(), 0.01f);
+    }
+
+    @Test
+    public void stalls_recordCountMaximumAndLastStack() {
+        StackTraceElement[] first = {new StackTraceElement("com.pixti.bitt.MainActivity", "classifyImage", "MainActivity.java", 10)};
+        StackTraceElement[] second = {new StackTraceElement("com.pixti.bitt.MainActivity", "speakOut", "MainActivity.java", 20)};
+
+        monitor.onStall(250, first);
+        monitor.onStallProgress(400);
+        monitor.onStall(210, second);
+
+        FrameMonitor.Summary summary = monitor.getSummary();
+        assertEquals(2, summary.stalls);
+        assertEquals(400, summary.maxStallMs);
+        assertTrue(summary.lastStallStack.contains("speakOut"));
+        assertFalse(summary.lastStallStack.contains("classifyImage"));
+    }
+
+    @Test
+    public void reset_clearsAllMetrics() {
+        monitor.onFrameInterval(100 * MS);
+        monitor.onStall(300, new StackTraceElement[0]);
+        monitor.reset();
+
+        FrameMonitor.Summary summary = monitor.getSummary();
+        assertEquals(0, summary.frames);
+        assertEquals(0, summary.droppedFrames);
+        assertEquals(0, summary.stalls);
+        assertEquals(0f, summary.averageFrameMs, 0f);
+        assertNull(summary.lastStallStack);
+    }
+}
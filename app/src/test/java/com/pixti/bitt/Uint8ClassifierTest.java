@@ -0,0 +1,67 @@
+package com.pixti.bitt;
+
+import org.junit.Test;
+import org.tensorflow.lite.DataType;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas locales de la firma aceptada y del empacado RGB de {@link Uint8Classifier}.
+ */
+public class Uint8ClassifierTest {
+    private static final int SIZE = 224;
+    private static final int CLASSES = 8;
+    private static final int[] INPUT_SHAPE = {1, SIZE, SIZE, 3};
+    private static final int[] OUTPUT_SHAPE = {1, CLASSES};
+
+    @Test
+    public void uint8InputAndMatchingOutput_isSupported() {
+        assertTrue(Uint8Classifier.isSupportedSignature(DataType.UINT8, INPUT_SHAPE,
+                DataType.FLOAT32, OUTPUT_SHAPE, SIZE, CLASSES));
+    }
+
+    @Test
+    public void floatInput_isRejected() {
+        assertFalse(Uint8Classifier.isSupportedSignature(DataType.FLOAT32, INPUT_SHAPE,
+                DataType.FLOAT32, OUTPUT_SHAPE, SIZE, CLASSES));
+    }
+
+    @Test
+    public void wrongInputSize_isRejected() {
+        assertFalse(Uint8Classifier.isSupportedSignature(DataType.UINT8, new int[]{1, 192, 192, 3},
+                DataType.FLOAT32, OUTPUT_SHAPE, SIZE, CLASSES));
+    }
+
+    @Test
+    public void quantizedOutput_isRejected() {
+        assertFalse(Uint8Classifier.isSupportedSignature(DataType.UINT8, INPUT_SHAPE,
+                DataType.UINT8, OUTPUT_SHAPE, SIZE, CLASSES));
+    }
+
+    @Test
+    public void differentClassCount_isRejected() {
+        assertFalse(Uint8Classifier.isSupportedSignature(DataType.UINT8, INPUT_SHAPE,
+                DataType.FLOAT32, new int[]{1, 16}, SIZE, CLASSES));
+    }
+
+    @Test
+    public void differentOutputRank_isRejected() {
+        assertFalse(Uint8Classifier.isSupportedSignature(DataType.UINT8, INPUT_SHAPE,
+                DataType.FLOAT32, new int[]{CLASSES}, SIZE, CLASSES));
+        assertFalse(Uint8Classifier.isSupportedSignature(DataType.UINT8, INPUT_SHAPE,
+                DataType.FLOAT32, new int[]{1, 1, CLASSES}, SIZE, CLASSES));
+    }
+
+    @Test
+    public void packRgb_dropsAlphaAndKeepsChannelOrder() {
+        int[] argb = {0xFF102030, 0x80FFFFFF, 0x00000000, 0xFFA0B0C0};
+        byte[] rgb = new byte[argb.length * 3];
+        Uint8Classifier.packRgb(argb, rgb);
+        assertArrayEquals(new byte[]{
+                0x10, 0x20, 0x30,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                0x00, 0x00, 0x00,
+                (byte) 0xA0, (byte) 0xB0, (byte) 0xC0
+        }, rgb);
+    }
+}